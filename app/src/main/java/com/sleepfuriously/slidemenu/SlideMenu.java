@@ -8,12 +8,26 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Region;
+import android.os.Build;
+import android.os.Bundle;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+import android.view.ViewParent;
+import android.view.accessibility.AccessibilityEvent;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.widget.AppCompatButton;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.List;
 
 
 /**
@@ -54,6 +68,14 @@ import androidx.appcompat.widget.AppCompatButton;
  * constants will have both.  The suffix will distinguish which is which
  * (furthermore mm vars will be <code>floats</code> while dp vars will
  * always be <code>ints</code>--at least that's what I'm striving for).
+ *
+ * <h3>Parent Layout</h3>
+ *
+ * The options are drawn outside the Orig rect (above it and off to the
+ * sides).  Before P the widget widens its own clip to make room.  From P on
+ * that isn't allowed, so the parent ViewGroup MUST set
+ * <code>android:clipChildren="false"</code> or the options will never be
+ * seen.
  */
 public class SlideMenu extends AppCompatButton {
 
@@ -116,6 +138,37 @@ public class SlideMenu extends AppCompatButton {
 			ORIG_SIDE_MM + CLIP_ADDITIONAL_HEIGHT_MM;
 
 
+		//===============
+		//  touch constants
+		//
+
+	/** No gesture in progress */
+	private static final int TOUCH_STATE_IDLE = 0;
+
+	/** Finger is down, but hasn't moved far enough to tell what it's doing */
+	private static final int TOUCH_STATE_UNDECIDED = 1;
+
+	/** Gesture is a slide toward a landing zone and belongs to this widget */
+	private static final int TOUCH_STATE_CLAIMED = 2;
+
+	/**
+	 * Gesture is something else (probably a scroll).  It's never claimed, so
+	 * the parent may intercept it; until then its events are ignored.
+	 */
+	private static final int TOUCH_STATE_RELEASED = 3;
+
+
+		//===============
+		//  accessibility constants
+		//
+
+	/** Virtual view ids for the options exposed to accessibility services */
+	@VisibleForTesting
+	static final int
+			VIRTUAL_ID_LEFT = 0,
+			VIRTUAL_ID_RIGHT = 1;
+
+
 	//-------------------
 	//  data
 	//-------------------
@@ -171,6 +224,15 @@ public class SlideMenu extends AppCompatButton {
 	 */
 	private float mTouchStartRelativeX, mTouchStartRelativeY;
 
+	/** Where the current gesture stands. One of the TOUCH_STATE_* constants. */
+	private int mTouchState = TOUCH_STATE_IDLE;
+
+	/**
+	 * Distance (in Ap) a finger must travel before the gesture is
+	 * claimed or given back to the parent.
+	 */
+	private int mTouchSlopAp;
+
 	/**
 	 * True means that the user's finger is currently over the
 	 * left/right menu area.
@@ -210,6 +272,14 @@ public class SlideMenu extends AppCompatButton {
 	 */
 	private Rect mLeftLzRelativeApRect, mRightLzRelativeApRect;
 
+		//===============
+		//  accessibility data
+		//
+
+	/** Exposes the left & right options as virtual views to accessibility services */
+	@VisibleForTesting
+	OptionAccessHelper mAccessHelper;
+
 	//-------------------
 	//  constructors & initializers
 	//-------------------
@@ -268,6 +338,8 @@ public class SlideMenu extends AppCompatButton {
 		mMetrics = getResources().getDisplayMetrics();
 		mPixelDensity = mMetrics.density;
 
+		mTouchSlopAp = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+
 		// calculate the sizes we want for this widget based on current
 		// screen density
 		mOrigWidthAp = mmToPixels(ORIG_SIDE_MM);
@@ -285,6 +357,9 @@ public class SlideMenu extends AppCompatButton {
 
 		// disable built-in background
 		setBackgroundResource(0);
+
+		mAccessHelper = new OptionAccessHelper(this);
+		ViewCompat.setAccessibilityDelegate(this, mAccessHelper);
 	}
 
 
@@ -370,7 +445,18 @@ public class SlideMenu extends AppCompatButton {
 
 
 	/**
-	 * When the button is first touched, display the options (left and right).
+	 * When the button is first touched, nothing happens yet.  The gesture
+	 * could just as well be the start of a scroll in a parent (a list full of
+	 * these widgets, for instance), so it's not worth a redraw.
+	 *
+	 * Once the finger has moved past the touch slop, the gesture is decided
+	 * (see {@link #arbitrateGesture(float, float)}).  A horizontal move toward
+	 * an option is claimed: the parent is told to stop intercepting
+	 * (requestDisallowInterceptTouchEvent(true)) and the options are
+	 * displayed.  Anything else (vertical, or toward a side with no option)
+	 * is never claimed, so a scrolling parent is free to intercept it and
+	 * will send this widget an ACTION_CANCEL when it does.  If the parent
+	 * doesn't intercept, the rest of that gesture is simply ignored here.
 	 *
 	 * When the user slides their hand, illuminate/deluminate the options
 	 * appropriately.
@@ -388,48 +474,52 @@ public class SlideMenu extends AppCompatButton {
 	 *
 	 * @return  True means the event was completely handled.
 	 */
-	@SuppressLint("ClickableViewAccessibility")	// to remove accessibility warning for blind people
+	@SuppressLint("ClickableViewAccessibility")	// options are exposed through mAccessHelper instead
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
 
 		switch (event.getAction()) {
 			case MotionEvent.ACTION_DOWN:
-				mTouchStartRelativeX = event.getRawX();
-				mTouchStartRelativeY = event.getRawY();
-
-				if (mFingerDown == false) {
-					mFingerDown = true;
-					invalidate();
-				}
-				Log.d(TAG, "onTouch() - ACTION_DOWN, x = " + mTouchStartRelativeX + ", y = " + mTouchStartRelativeY);
-				break;
+				mTouchStartRelativeX = event.getX();
+				mTouchStartRelativeY = event.getY();
+				mTouchState = TOUCH_STATE_UNDECIDED;
+				break;	// need to keep getting events to decide what this gesture is
 
 			case MotionEvent.ACTION_UP:
-				// Only do something if a listener exists
-				if (mOnSlideMenuListener != null) {
+				if (mTouchState == TOUCH_STATE_CLAIMED) {
 					if (mLeftActive) {
-						mOnSlideMenuListener.onSlideLeft();
-						mLeftActive = false;
-						mRightActive = false;
+						selectLeftOption();
 					}
 					else if (mRightActive) {
-						mOnSlideMenuListener.onSlideRight();
-						mLeftActive = false;
-						mRightActive = false;
+						selectRightOption();
 					}
 				}
-				invalidate();
-				mFingerDown = false;
+				resetGesture();
+				break;
+
+			case MotionEvent.ACTION_CANCEL:
+				// Parent took the gesture (or it was aborted). Never fire an option here.
+				resetGesture();
 				break;
 
 			case MotionEvent.ACTION_MOVE:
-				if (isInLeftActionArea((int)event.getX(), (int)event.getY())) {
+				if (mTouchState == TOUCH_STATE_UNDECIDED) {
+					arbitrateGesture(event.getX(), event.getY());
+				}
+				if (mTouchState != TOUCH_STATE_CLAIMED) {
+					// Undecided: keep watching.  Released: ignore it--the
+					// parent may still intercept since it was never disallowed.
+					break;
+				}
+
+				// a landing zone only counts if it has an option to show
+				if ((mLeftText != null) && isInLeftActionArea((int)event.getX(), (int)event.getY())) {
 					if (mLeftActive != true) {
 						mLeftActive = true;
 						invalidate();
 					}
 				}
-				else if (isInRightActionArea((int)event.getX(), (int)event.getY())) {
+				else if ((mRightText != null) && isInRightActionArea((int)event.getX(), (int)event.getY())) {
 					if (mRightActive != true) {
 						mRightActive = true;
 						invalidate();
@@ -456,6 +546,123 @@ public class SlideMenu extends AppCompatButton {
 	}
 
 
+	/**
+	 * Call after any of the option properties (text, colors, size) change.
+	 * Used by the setters and by {@link Editor#commit()} alike.<br>
+	 *<br>
+	 * The options are only drawn while one is active, so that's the only
+	 * time a redraw is needed.  invalidate() already coalesces into one
+	 * draw per frame, so calling this several times in a row is cheap.
+	 *
+	 * @param paintsChanged		TRUE if a color or the text size changed,
+	 * 							meaning the option Paints must be updated.
+	 */
+	private void onOptionsChanged(boolean paintsChanged) {
+		if (mLeftPaint == null) {
+			return;		// not initialized yet--init() reads the fields directly
+		}
+
+		if (paintsChanged) {
+			mLeftPaint.setColor(mLeftTextColor);
+			mLeftPaint.setTextSize(mMenuTextSize);
+			mRightPaint.setColor(mRightTextColor);
+			mRightPaint.setTextSize(mMenuTextSize);
+		}
+
+		if (mLeftActive || mRightActive) {
+			invalidate();
+		}
+	}
+
+
+	/**
+	 * Decides whether the current gesture belongs to this widget or
+	 * to the parent.  Nothing is decided until the finger has moved more
+	 * than the touch slop.
+	 *
+	 * preconditions:
+	 * 		mTouchState		TOUCH_STATE_UNDECIDED
+	 *
+	 * @param x		Current x of the finger (relative coords)
+	 * @param y		Current y of the finger (relative coords)
+	 */
+	private void arbitrateGesture(float x, float y) {
+
+		float dx = x - mTouchStartRelativeX;
+		float absDx = Math.abs(dx);
+		float absDy = Math.abs(y - mTouchStartRelativeY);
+
+		if ((absDy > mTouchSlopAp) && (absDy >= absDx)) {
+			// vertical--that's a scroll. Don't disallow the parent from taking it.
+			mTouchState = TOUCH_STATE_RELEASED;
+			return;
+		}
+
+		if ((absDx > mTouchSlopAp) && (absDx > absDy)) {
+			// Horizontal, but only ours if there's an option that way
+			boolean towardOption = (dx < 0) ? (mLeftText != null) : (mRightText != null);
+			if (towardOption == false) {
+				mTouchState = TOUCH_STATE_RELEASED;
+				return;
+			}
+
+			mTouchState = TOUCH_STATE_CLAIMED;
+			ViewParent parent = getParent();
+			if (parent != null) {
+				parent.requestDisallowInterceptTouchEvent(true);
+			}
+			mFingerDown = true;
+			invalidate();
+		}
+	}
+
+	/**
+	 * Puts the touch state back to idle, redrawing only if something
+	 * was actually showing.
+	 */
+	private void resetGesture() {
+		if (mFingerDown || mLeftActive || mRightActive) {
+			invalidate();
+		}
+		mFingerDown = false;
+		mLeftActive = false;
+		mRightActive = false;
+		mTouchState = TOUCH_STATE_IDLE;
+	}
+
+
+	/**
+	 * Fires the left option.  This is the one path used both by a slide
+	 * and by an accessibility action on the left virtual view.
+	 *
+	 * @return  True iff there was a listener to receive the selection.
+	 */
+	private boolean selectLeftOption() {
+		// Only do something if a listener exists
+		if (mOnSlideMenuListener == null) {
+			return false;
+		}
+		mOnSlideMenuListener.onSlideLeft();
+		mAccessHelper.sendEventForVirtualView(VIRTUAL_ID_LEFT, AccessibilityEvent.TYPE_VIEW_CLICKED);
+		return true;
+	}
+
+	/**
+	 * Fires the right option.  Same as {@link #selectLeftOption()}, but
+	 * for the right.
+	 *
+	 * @return  True iff there was a listener to receive the selection.
+	 */
+	private boolean selectRightOption() {
+		if (mOnSlideMenuListener == null) {
+			return false;
+		}
+		mOnSlideMenuListener.onSlideRight();
+		mAccessHelper.sendEventForVirtualView(VIRTUAL_ID_RIGHT, AccessibilityEvent.TYPE_VIEW_CLICKED);
+		return true;
+	}
+
+
 	/**
 	 * Determines if the given coordinates are within the area designated
 	 * as the left option area.
@@ -515,6 +722,30 @@ public class SlideMenu extends AppCompatButton {
 		// todo
 	}
 
+	@Override
+	protected boolean dispatchHoverEvent(MotionEvent event) {
+		return mAccessHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+	}
+
+	@Override
+	public boolean dispatchKeyEvent(KeyEvent event) {
+		return mAccessHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+	}
+
+	@Override
+	protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+		super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+		mAccessHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+
+		// the virtual views are laid out on the Orig rect
+		mAccessHelper.invalidateOptions();
+	}
+
 	@Override
 	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
 
@@ -539,8 +770,11 @@ public class SlideMenu extends AppCompatButton {
 			mFirstTime = false;
 		}
 
-		// first things first: increase the clip rect
-		if (mClipRelativeApRect != null) {
+		// first things first: increase the clip rect.
+		// Only possible before P.  From P on, Region.Op.REPLACE throws for apps
+		// targeting P or later, and the clip can't grow--the parent has to not
+		// clip its children instead (android:clipChildren="false").
+		if ((mClipRelativeApRect != null) && (Build.VERSION.SDK_INT < Build.VERSION_CODES.P)) {
 			canvas.clipRect(mClipRelativeApRect, Region.Op.REPLACE);
 		}
 
@@ -572,12 +806,39 @@ public class SlideMenu extends AppCompatButton {
 	//  getters & setters
 	//-------------------
 
+	/*
+	 * Note: the setters below are fine for changing one thing.  To change
+	 * several properties (or several SlideMenus) at once, use edit() or
+	 * editAll() instead.
+	 */
+
+	/**
+	 * Starts a batch of property changes for this SlideMenu.  Nothing
+	 * happens until {@link Editor#commit()} is called.
+	 */
+	public Editor edit() {
+		return new Editor(this);
+	}
+
+	/**
+	 * Starts a batch of property changes that will be applied to all of
+	 * the given SlideMenus (a whole keypad on a theme change, for example).
+	 * Nothing happens until {@link Editor#commit()} is called.
+	 */
+	public static Editor editAll(SlideMenu... menus) {
+		return new Editor(menus);
+	}
+
 	public String getLeftText() {
 		return mLeftText;
 	}
 
 	public void setLeftText(String text) {
 		mLeftText = text;
+		if (mAccessHelper != null) {
+			mAccessHelper.invalidateOptions();
+		}
+		onOptionsChanged(false);
 	}
 
 	public String getRightText() {
@@ -586,6 +847,10 @@ public class SlideMenu extends AppCompatButton {
 
 	public void setRightText(String text) {
 		mRightText = text;
+		if (mAccessHelper != null) {
+			mAccessHelper.invalidateOptions();
+		}
+		onOptionsChanged(false);
 	}
 
 	public OnSlideMenuListener getOnSlideMenuListener() {
@@ -602,9 +867,7 @@ public class SlideMenu extends AppCompatButton {
 
 	public void setLeftTextColor(int color) {
 		mLeftTextColor = color;
-		if (mLeftPaint != null) {
-			mLeftPaint.setColor(color);
-		}
+		onOptionsChanged(true);
 	}
 
 	public int getRightTextColor() {
@@ -613,9 +876,7 @@ public class SlideMenu extends AppCompatButton {
 
 	public void setRightTextColor(int color) {
 		mRightTextColor = color;
-		if (mRightPaint != null) {
-			mRightPaint.setColor(color);
-		}
+		onOptionsChanged(true);
 	}
 
 	public float getMenuTextSize() {
@@ -624,6 +885,230 @@ public class SlideMenu extends AppCompatButton {
 
 	public void setMenuTextSize(float textSize) {
 		mMenuTextSize = textSize;
+		onOptionsChanged(true);
+	}
+
+
+	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	//  classes
+	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+	/**
+	 * Collects property changes and applies them all at once to one or
+	 * more SlideMenus.  Get one from {@link #edit()} or
+	 * {@link #editAll(SlideMenu...)}.<br>
+	 *<br>
+	 * On {@link #commit()}, each SlideMenu gets its Paints updated once (only
+	 * if a color or the size changed), its accessibility cache invalidated
+	 * once (only if a text changed), and at most one invalidate()--no matter
+	 * how many properties were changed.<br>
+	 *<br>
+	 * Properties that aren't set are left alone.
+	 */
+	public static class Editor {
+
+		private final SlideMenu[] mMenus;
+
+		private String mLeftText, mRightText;
+		private boolean mLeftTextSet = false, mRightTextSet = false;
+
+		private int mLeftTextColor, mRightTextColor;
+		private boolean mLeftTextColorSet = false, mRightTextColorSet = false;
+
+		private float mMenuTextSize;
+		private boolean mMenuTextSizeSet = false;
+
+		private Editor(SlideMenu... menus) {
+			mMenus = menus.clone();
+		}
+
+		public Editor setLeftText(String text) {
+			mLeftText = text;
+			mLeftTextSet = true;
+			return this;
+		}
+
+		public Editor setRightText(String text) {
+			mRightText = text;
+			mRightTextSet = true;
+			return this;
+		}
+
+		public Editor setLeftTextColor(int color) {
+			mLeftTextColor = color;
+			mLeftTextColorSet = true;
+			return this;
+		}
+
+		public Editor setRightTextColor(int color) {
+			mRightTextColor = color;
+			mRightTextColorSet = true;
+			return this;
+		}
+
+		public Editor setMenuTextSize(float textSize) {
+			mMenuTextSize = textSize;
+			mMenuTextSizeSet = true;
+			return this;
+		}
+
+		/**
+		 * Applies all the changes to every SlideMenu in this Editor.
+		 * Must be called on the UI thread.
+		 */
+		public void commit() {
+			boolean textChanged = mLeftTextSet || mRightTextSet;
+			boolean paintsChanged = mLeftTextColorSet || mRightTextColorSet || mMenuTextSizeSet;
+
+			if ((textChanged == false) && (paintsChanged == false)) {
+				return;		// nothing to do
+			}
+
+			for (SlideMenu menu : mMenus) {
+				if (mLeftTextSet) {
+					menu.mLeftText = mLeftText;
+				}
+				if (mRightTextSet) {
+					menu.mRightText = mRightText;
+				}
+				if (mLeftTextColorSet) {
+					menu.mLeftTextColor = mLeftTextColor;
+				}
+				if (mRightTextColorSet) {
+					menu.mRightTextColor = mRightTextColor;
+				}
+				if (mMenuTextSizeSet) {
+					menu.mMenuTextSize = mMenuTextSize;
+				}
+
+				if (textChanged) {
+					menu.mAccessHelper.invalidateOptions();
+				}
+				menu.onOptionsChanged(paintsChanged);
+			}
+		}
+	}
+
+
+	/**
+	 * Exposes the left and right options as virtual child views so that
+	 * accessibility services can find and trigger them.<br>
+	 *<br>
+	 * The landing zones lie completely outside this View, and accessibility
+	 * services never see (or hover) anything outside of it.  So each option
+	 * is given half of the Orig rect instead: left half for the left option,
+	 * right half for the right.<br>
+	 *<br>
+	 * The half-rects and the (never null) option texts are cached here, and
+	 * only rebuilt after {@link #invalidateOptions()} marks them stale.
+	 * That's a small saving: ExploreByTouchHelper still obtains a new node
+	 * and works out its screen bounds on every query.  Until the View has
+	 * a size, no options are exposed.
+	 */
+	@VisibleForTesting
+	class OptionAccessHelper extends ExploreByTouchHelper {
+
+		/** Cached bounds of each option (relative coords, halves of the Orig rect) */
+		private final Rect mLeftBounds = new Rect(), mRightBounds = new Rect();
+
+		/** Cached text of each option. Never null once the cache is valid. */
+		private CharSequence mLeftDesc = "", mRightDesc = "";
+
+		/** When TRUE, the cached values no longer match the widget */
+		private boolean mStale = true;
+
+		/** Number of times the cache has been rebuilt */
+		@VisibleForTesting
+		int mCacheBuilds = 0;
+
+		OptionAccessHelper(@NonNull SlideMenu host) {
+			super(host);
+		}
+
+		/**
+		 * Marks the cached node data as stale and lets accessibility services
+		 * know that something changed.  Call whenever the text or the
+		 * size of the View changes.<br>
+		 *<br>
+		 * Always invalidates the root: setting a text to or from null adds or
+		 * removes a virtual view, and a size change moves both of them.
+		 */
+		void invalidateOptions() {
+			mStale = true;
+			invalidateRoot();
+		}
+
+		/**
+		 * Rebuilds the cache, but only if it's stale.
+		 */
+		private void refreshIfStale() {
+			if (mStale == false) {
+				return;
+			}
+			// Orig rect is (0,0) to (width,height) in relative coords.
+			// Both stay empty until the View has been laid out.
+			int centerX = getWidth() / 2;
+			mLeftBounds.set(0, 0, centerX, getHeight());
+			mRightBounds.set(centerX, 0, getWidth(), getHeight());
+			mLeftDesc = (mLeftText == null) ? "" : mLeftText;
+			mRightDesc = (mRightText == null) ? "" : mRightText;
+			mStale = false;
+			mCacheBuilds++;
+		}
+
+		@Override
+		protected int getVirtualViewAt(float x, float y) {
+			refreshIfStale();
+			if ((mLeftText != null) && mLeftBounds.contains((int) x, (int) y)) {
+				return VIRTUAL_ID_LEFT;
+			}
+			if ((mRightText != null) && mRightBounds.contains((int) x, (int) y)) {
+				return VIRTUAL_ID_RIGHT;
+			}
+			return INVALID_ID;
+		}
+
+		@Override
+		protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+			refreshIfStale();
+
+			// only options that have something to say (and somewhere to be) are exposed
+			if ((mLeftText != null) && (mLeftBounds.isEmpty() == false)) {
+				virtualViewIds.add(VIRTUAL_ID_LEFT);
+			}
+			if ((mRightText != null) && (mRightBounds.isEmpty() == false)) {
+				virtualViewIds.add(VIRTUAL_ID_RIGHT);
+			}
+		}
+
+		@Override
+		protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+			refreshIfStale();
+			if (virtualViewId == VIRTUAL_ID_LEFT) {
+				node.setContentDescription(mLeftDesc);
+				node.setBoundsInParent(mLeftBounds);
+			}
+			else {
+				node.setContentDescription(mRightDesc);
+				node.setBoundsInParent(mRightBounds);
+			}
+			node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+		}
+
+		@Override
+		protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+			if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) {
+				return false;
+			}
+			switch (virtualViewId) {
+				case VIRTUAL_ID_LEFT:
+					return selectLeftOption();
+				case VIRTUAL_ID_RIGHT:
+					return selectRightOption();
+				default:
+					return false;
+			}
+		}
 	}
 
 
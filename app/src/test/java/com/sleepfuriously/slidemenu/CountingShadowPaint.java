@@ -0,0 +1,191 @@
+package com.sleepfuriously.slidemenu;
+
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PathEffect;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowPaint;
+
+/**
+ * Robolectric shadow for Paint that counts calls, so
+ * {@link SlideMenuDrawBudgetTest} can see Paint work done during a frame.
+ * Counts cover every Paint (the widget's own and TextView's).
+ *     <li>sets - any setter that changes how a Paint draws</li>
+ *     <li>measures - every measureText() flavor (text shaping)</li>
+ *<br>
+ * Install both this and {@link ForTextPaint} with <code>@Config(shadows = ...)</code>.
+ */
+@Implements(Paint.class)
+public class CountingShadowPaint extends ShadowPaint {
+
+	static int sets, measures;
+
+	/**
+	 * TextPaint (used by TextView) needs its own shadow, and it must be a
+	 * CountingShadowPaint too since the Paint methods above get called on it.
+	 */
+	@Implements(TextPaint.class)
+	public static class ForTextPaint extends CountingShadowPaint {
+	}
+
+	/** Clears the counts. Call before the frame being measured. */
+	static void reset() {
+		sets = 0;
+		measures = 0;
+	}
+
+
+	//-------------------
+	//  setters
+	//-------------------
+
+	@Implementation
+	@Override
+	protected void setColor(int color) {
+		sets++;
+		super.setColor(color);
+	}
+
+	@Implementation
+	@Override
+	protected void setAlpha(int alpha) {
+		sets++;
+		super.setAlpha(alpha);
+	}
+
+	@Implementation
+	@Override
+	protected void setTextSize(float textSize) {
+		sets++;
+		super.setTextSize(textSize);
+	}
+
+	@Implementation
+	@Override
+	protected void setTextAlign(Paint.Align align) {
+		sets++;
+		super.setTextAlign(align);
+	}
+
+	@Implementation
+	@Override
+	protected Typeface setTypeface(Typeface typeface) {
+		sets++;
+		return super.setTypeface(typeface);
+	}
+
+	@Implementation
+	@Override
+	protected void setStyle(Paint.Style style) {
+		sets++;
+		super.setStyle(style);
+	}
+
+	@Implementation
+	@Override
+	protected void setStrokeWidth(float width) {
+		sets++;
+		super.setStrokeWidth(width);
+	}
+
+	@Implementation
+	@Override
+	protected void setStrokeCap(Paint.Cap cap) {
+		sets++;
+		super.setStrokeCap(cap);
+	}
+
+	@Implementation
+	@Override
+	protected void setStrokeJoin(Paint.Join join) {
+		sets++;
+		super.setStrokeJoin(join);
+	}
+
+	@Implementation
+	@Override
+	protected void setAntiAlias(boolean aa) {
+		sets++;
+		super.setAntiAlias(aa);
+	}
+
+	@Implementation
+	@Override
+	protected void setDither(boolean dither) {
+		sets++;
+		super.setDither(dither);
+	}
+
+	@Implementation
+	@Override
+	protected void setFlags(int flags) {
+		sets++;
+		super.setFlags(flags);
+	}
+
+	@Implementation
+	@Override
+	protected Shader setShader(Shader shader) {
+		sets++;
+		return super.setShader(shader);
+	}
+
+	@Implementation
+	@Override
+	protected ColorFilter setColorFilter(ColorFilter filter) {
+		sets++;
+		return super.setColorFilter(filter);
+	}
+
+	@Implementation
+	@Override
+	protected PathEffect setPathEffect(PathEffect effect) {
+		sets++;
+		return super.setPathEffect(effect);
+	}
+
+	@Implementation
+	@Override
+	protected void setShadowLayer(float radius, float dx, float dy, int color) {
+		sets++;
+		super.setShadowLayer(radius, dx, dy, color);
+	}
+
+
+	//-------------------
+	//  text shaping
+	//-------------------
+
+	@Implementation
+	@Override
+	protected float measureText(String text) {
+		measures++;
+		return super.measureText(text);
+	}
+
+	@Implementation
+	@Override
+	protected float measureText(CharSequence text, int start, int end) {
+		measures++;
+		return super.measureText(text, start, end);
+	}
+
+	@Implementation
+	@Override
+	protected float measureText(String text, int start, int end) {
+		measures++;
+		return super.measureText(text, start, end);
+	}
+
+	@Implementation
+	@Override
+	protected float measureText(char[] text, int index, int count) {
+		measures++;
+		return super.measureText(text, index, count);
+	}
+}
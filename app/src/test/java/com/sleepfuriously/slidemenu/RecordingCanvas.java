@@ -0,0 +1,454 @@
+package com.sleepfuriously.slidemenu;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.NinePatch;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A Canvas that draws nothing and just counts what it was asked to do.
+ * Used by {@link SlideMenuDrawBudgetTest} to keep an eye on how much work
+ * a frame of SlideMenu costs.<br>
+ *<br>
+ * Counts are split into:
+ *     <li>draw ops - shapes, colors, bitmaps, pictures (everything but text)</li>
+ *     <li>text ops - every drawText(), drawTextRun(), drawPosText() and
+ *         drawTextOnPath() call</li>
+ *     <li>clip ops - every clipXxx() call</li>
+ *     <li>paints - distinct Paint instances handed in. Kept across
+ *         {@link #reset()} so that a Paint allocated per frame shows up.</li>
+ *<br>
+ * Every public draw and clip method of Canvas is overridden (see
+ * SlideMenuDrawBudgetTest#recordingCanvas_overridesWholeDrawSurface).
+ * Clip ops are checked the same way the framework checks them, so a clip
+ * that would throw on a device throws here too.<br>
+ *<br>
+ * The clip bounds always cover {@link #BOUNDS}, like a real canvas would
+ * for a visible View.  Otherwise the framework's text layout thinks
+ * nothing is visible and skips drawing.
+ */
+class RecordingCanvas extends Canvas {
+
+	/** What getClipBounds() reports. Plenty for one SlideMenu. */
+	static final Rect BOUNDS = new Rect(-2000, -2000, 2000, 2000);
+
+	int drawOps, textOps, clipOps;
+
+	/** Every string drawn since the last reset() */
+	final List<String> texts = new ArrayList<>();
+
+	/** The Paint each of {@link #texts} was drawn with */
+	final List<Paint> textPaints = new ArrayList<>();
+
+	/** Identity set of all Paints ever used on this canvas */
+	final Set<Paint> paints = Collections.newSetFromMap(new IdentityHashMap<Paint, Boolean>());
+
+	/**
+	 * Clears the per-frame counts.  Paints are intentionally NOT cleared.
+	 */
+	void reset() {
+		drawOps = 0;
+		textOps = 0;
+		clipOps = 0;
+		texts.clear();
+		textPaints.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "draw=" + drawOps + ", text=" + textOps + ", clip=" + clipOps
+				+ ", paints=" + paints.size() + ", texts=" + texts;
+	}
+
+	private void draw(Paint paint) {
+		drawOps++;
+		if (paint != null) {
+			paints.add(paint);
+		}
+	}
+
+	private void text(CharSequence text, int start, int end, Paint paint) {
+		textOps++;
+		texts.add(text.subSequence(start, end).toString());
+		textPaints.add(paint);
+		paints.add(paint);
+	}
+
+	private boolean clip() {
+		clipOps++;
+		return true;
+	}
+
+	/**
+	 * Same rule as Canvas.checkValidClipOp(): apps targeting P or later
+	 * may only INTERSECT or DIFFERENCE.  (This app targets later than P.)
+	 */
+	private boolean clip(Region.Op op) {
+		if ((Build.VERSION.SDK_INT >= Build.VERSION_CODES.P)
+				&& (op != Region.Op.INTERSECT) && (op != Region.Op.DIFFERENCE)) {
+			throw new IllegalArgumentException("Invalid Region.Op - only INTERSECT and DIFFERENCE are allowed");
+		}
+		return clip();
+	}
+
+	@Override
+	public boolean getClipBounds(Rect bounds) {
+		bounds.set(BOUNDS);
+		return true;
+	}
+
+
+	//-------------------
+	//  draw ops
+	//-------------------
+
+	@Override
+	public void drawARGB(int a, int r, int g, int b) {
+		draw(null);
+	}
+
+	@Override
+	public void drawRGB(int r, int g, int b) {
+		draw(null);
+	}
+
+	@Override
+	public void drawColor(int color) {
+		draw(null);
+	}
+
+	@Override
+	public void drawColor(int color, PorterDuff.Mode mode) {
+		draw(null);
+	}
+
+	@Override
+	public void drawPaint(Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawArc(float left, float top, float right, float bottom, float startAngle,
+						float sweepAngle, boolean useCenter, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+		draw(paint);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public void drawBitmap(int[] colors, int offset, int stride, float x, float y,
+						   int width, int height, boolean hasAlpha, Paint paint) {
+		draw(paint);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public void drawBitmap(int[] colors, int offset, int stride, int x, int y,
+						   int width, int height, boolean hasAlpha, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawBitmapMesh(Bitmap bitmap, int meshWidth, int meshHeight, float[] verts,
+							   int vertOffset, int[] colors, int colorOffset, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawCircle(float cx, float cy, float radius, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawLines(float[] pts, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawLines(float[] pts, int offset, int count, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawOval(RectF oval, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawOval(float left, float top, float right, float bottom, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawPath(Path path, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawPicture(Picture picture) {
+		draw(null);
+	}
+
+	@Override
+	public void drawPicture(Picture picture, RectF dst) {
+		draw(null);
+	}
+
+	@Override
+	public void drawPicture(Picture picture, Rect dst) {
+		draw(null);
+	}
+
+	@Override
+	public void drawPoint(float x, float y, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawPoints(float[] pts, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawRect(RectF rect, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawRect(Rect r, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawRoundRect(float left, float top, float right, float bottom, float rx, float ry, Paint paint) {
+		draw(paint);
+	}
+
+	@Override
+	public void drawVertices(VertexMode mode, int vertexCount, float[] verts, int vertOffset,
+							 float[] texs, int texOffset, int[] colors, int colorOffset,
+							 short[] indices, int indexOffset, int indexCount, Paint paint) {
+		draw(paint);
+	}
+
+	// hidden in the SDK (so no @Override), but public--and used by the framework
+
+	public void drawPatch(NinePatch patch, Rect dst, Paint paint) {
+		draw(paint);
+	}
+
+	public void drawPatch(NinePatch patch, RectF dst, Paint paint) {
+		draw(paint);
+	}
+
+
+	//-------------------
+	//  text ops
+	//-------------------
+
+	@Override
+	public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+		text(new String(text), index, index + count, paint);
+	}
+
+	@Override
+	public void drawText(String text, float x, float y, Paint paint) {
+		text(text, 0, text.length(), paint);
+	}
+
+	@Override
+	public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+		text(text, start, end, paint);
+	}
+
+	@Override
+	public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+		text(text, start, end, paint);
+	}
+
+	@Override
+	public void drawTextRun(char[] text, int index, int count, int contextIndex, int contextCount,
+							float x, float y, boolean isRtl, Paint paint) {
+		text(new String(text), index, index + count, paint);
+	}
+
+	@Override
+	public void drawTextRun(CharSequence text, int start, int end, int contextStart, int contextEnd,
+							float x, float y, boolean isRtl, Paint paint) {
+		text(text, start, end, paint);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public void drawPosText(char[] text, int index, int count, float[] pos, Paint paint) {
+		text(new String(text), index, index + count, paint);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public void drawPosText(String text, float[] pos, Paint paint) {
+		text(text, 0, text.length(), paint);
+	}
+
+	@Override
+	public void drawTextOnPath(char[] text, int index, int count, Path path,
+							   float hOffset, float vOffset, Paint paint) {
+		text(new String(text), index, index + count, paint);
+	}
+
+	@Override
+	public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+		text(text, 0, text.length(), paint);
+	}
+
+
+	//-------------------
+	//  clip ops
+	//-------------------
+
+	@Override
+	public boolean clipRect(Rect rect) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipRect(RectF rect) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipRect(float left, float top, float right, float bottom) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipRect(int left, int top, int right, int bottom) {
+		return clip();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean clipRect(Rect rect, Region.Op op) {
+		return clip(op);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean clipRect(RectF rect, Region.Op op) {
+		return clip(op);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean clipRect(float left, float top, float right, float bottom, Region.Op op) {
+		return clip(op);
+	}
+
+	@Override
+	public boolean clipPath(Path path) {
+		return clip();
+	}
+
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean clipPath(Path path, Region.Op op) {
+		return clip(op);
+	}
+
+	@Override
+	public boolean clipOutRect(Rect rect) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipOutRect(RectF rect) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipOutRect(float left, float top, float right, float bottom) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipOutRect(int left, int top, int right, int bottom) {
+		return clip();
+	}
+
+	@Override
+	public boolean clipOutPath(Path path) {
+		return clip();
+	}
+
+	// hidden in the SDK (so no @Override), but public--and used by the framework
+
+	public boolean clipRectUnion(Rect rect) {
+		return clip();	// the framework itself is allowed to UNION
+	}
+
+	public boolean clipRegion(Region region) {
+		return clip();
+	}
+
+	public boolean clipRegion(Region region, Region.Op op) {
+		return clip(op);
+	}
+}
@@ -0,0 +1,195 @@
+package com.sleepfuriously.slidemenu;
+
+import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * Renders SlideMenu into a {@link RecordingCanvas} for each gesture state and
+ * checks the per-frame work against the budgets checked in at
+ * <code>src/test/resources/slidemenu_draw_budgets.properties</code>.
+ * Paint calls are counted by {@link CountingShadowPaint}.<br>
+ *<br>
+ * Each state is drawn twice and only the second frame is counted, so
+ * first-time initialization doesn't throw the numbers off.  Paints are
+ * counted over both frames (a Paint allocated per frame would double).<br>
+ *<br>
+ * The budgets are exact: any change to the work done per frame, up or
+ * down, fails here.  If a change legitimately needs it, update the
+ * properties file in the same commit so reviewers see it.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, shadows = {CountingShadowPaint.class, CountingShadowPaint.ForTextPaint.class})
+public class SlideMenuDrawBudgetTest {
+
+	//-------------------
+	//  constants
+	//-------------------
+
+	private static final String BUDGET_FILE = "slidemenu_draw_budgets.properties";
+
+	private static final String
+			STATE_IDLE = "idle",
+			STATE_PRESSED = "pressed",
+			STATE_LEFT = "left",
+			STATE_RIGHT = "right";
+
+	//-------------------
+	//  data
+	//-------------------
+
+	private SlideMenuFixture mFixture;
+
+	private SlideMenu mMenu;
+
+	private Properties mBudgets;
+
+	//-------------------
+	//  setup
+	//-------------------
+
+	@Before
+	public void setUp() throws IOException {
+		mFixture = new SlideMenuFixture();
+		Activity activity = mFixture.getActivity();
+
+		// Same setup as slide_menu1 in activity_main.xml
+		mMenu = new SlideMenu(activity);
+		mMenu.setText("-3");
+		mMenu.setTextSize(TypedValue.COMPLEX_UNIT_SP, 24);
+		int padding = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 5,
+				activity.getResources().getDisplayMetrics());
+		mMenu.setPadding(padding, padding, padding, padding);
+		mMenu.edit()
+				.setLeftText("take")
+				.setLeftTextColor(Color.parseColor("#4A148C"))
+				.setRightText("give")
+				.setRightTextColor(Color.parseColor("#E48686"))
+				.setMenuTextSize(38)
+				.commit();
+
+		mFixture.attach(mMenu, new FrameLayout(activity));
+
+		mBudgets = new Properties();
+		InputStream in = getClass().getClassLoader().getResourceAsStream(BUDGET_FILE);
+		assertNotNull("missing " + BUDGET_FILE, in);
+		try {
+			mBudgets.load(in);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	//-------------------
+	//  tests
+	//-------------------
+
+	@Test
+	public void idle_withinBudget() {
+		RecordingCanvas canvas = render();
+		assertBudget(STATE_IDLE, canvas);
+		assertFalse(canvas.texts.contains("take"));
+		assertFalse(canvas.texts.contains("give"));
+	}
+
+	@Test
+	public void pressed_withinBudget() {
+		// Slide just past the slop, but stay inside the button
+		mFixture.downAtCenter();
+		mFixture.moveFromCenter(-mFixture.getTouchSlop() - 2, 0);
+
+		RecordingCanvas canvas = render();
+		assertBudget(STATE_PRESSED, canvas);
+		assertFalse(canvas.texts.contains("take"));
+	}
+
+	@Test
+	public void leftActive_withinBudget() {
+		mFixture.slideTo(mFixture.leftLzX());
+
+		RecordingCanvas canvas = render();
+		assertBudget(STATE_LEFT, canvas);
+		assertTrue("left option not drawn: " + canvas, canvas.texts.contains("take"));
+	}
+
+	@Test
+	public void rightActive_withinBudget() {
+		mFixture.slideTo(mFixture.rightLzX());
+
+		RecordingCanvas canvas = render();
+		assertBudget(STATE_RIGHT, canvas);
+		assertTrue("right option not drawn: " + canvas, canvas.texts.contains("give"));
+	}
+
+	/**
+	 * Anything the harness doesn't override would draw (or clip) without
+	 * being counted, so make sure nothing slips by.
+	 */
+	@Test
+	public void recordingCanvas_overridesWholeDrawSurface() throws NoSuchMethodException {
+		for (Method method : Canvas.class.getMethods()) {
+			String name = method.getName();
+			if ((name.startsWith("draw") == false) && (name.startsWith("clip") == false)) {
+				continue;
+			}
+			Method recorded = RecordingCanvas.class.getMethod(name, method.getParameterTypes());
+			assertEquals("RecordingCanvas doesn't count " + method,
+					RecordingCanvas.class, recorded.getDeclaringClass());
+		}
+	}
+
+	//-------------------
+	//  helpers
+	//-------------------
+
+	/**
+	 * Draws the current state twice, returning the canvas with the
+	 * counts from the second frame.
+	 */
+	private RecordingCanvas render() {
+		RecordingCanvas canvas = new RecordingCanvas();
+		mMenu.onDraw(canvas);
+
+		canvas.reset();
+		CountingShadowPaint.reset();
+		mMenu.onDraw(canvas);
+		return canvas;
+	}
+
+	private void assertBudget(String state, RecordingCanvas canvas) {
+		String frame = canvas + ", paintSets=" + CountingShadowPaint.sets
+				+ ", textMeasures=" + CountingShadowPaint.measures;
+
+		assertCount(state, "drawOps", canvas.drawOps, frame);
+		assertCount(state, "textOps", canvas.textOps, frame);
+		assertCount(state, "clipOps", canvas.clipOps, frame);
+		assertCount(state, "paints", canvas.paints.size(), frame);
+		assertCount(state, "paintSets", CountingShadowPaint.sets, frame);
+		assertCount(state, "textMeasures", CountingShadowPaint.measures, frame);
+	}
+
+	private void assertCount(String state, String counter, int actual, String frame) {
+		String key = state + "." + counter;
+		String budget = mBudgets.getProperty(key);
+		assertNotNull("no budget for " + key, budget);
+		assertEquals(key + " changed: " + frame, Integer.parseInt(budget.trim()), actual);
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.sleepfuriously.slidemenu;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Shared setup for the Robolectric SlideMenu tests.  Attaches a SlideMenu
+ * to a real (Robolectric) window so the landing zones get calculated the
+ * same way they would on a device, then sends it touches.<br>
+ *<br>
+ * Usage: build the SlideMenu and its parent with {@link #getActivity()},
+ * then call {@link #attach(SlideMenu, FrameLayout)}.
+ */
+class SlideMenuFixture {
+
+	//-------------------
+	//  data
+	//-------------------
+
+	private final ActivityController<Activity> mController;
+
+	private SlideMenu mMenu;
+
+	/** width & height of the SlideMenu (Orig rect) */
+	private int mWidth, mHeight;
+
+	private int mTouchSlop;
+
+	//-------------------
+	//  setup
+	//-------------------
+
+	SlideMenuFixture() {
+		mController = Robolectric.buildActivity(Activity.class).create();
+	}
+
+	/** Context to build the SlideMenu and its parent with */
+	Activity getActivity() {
+		return mController.get();
+	}
+
+	/**
+	 * Puts the SlideMenu (wrap_content) in the parent, shows it, and draws
+	 * the first frame.
+	 */
+	void attach(SlideMenu menu, FrameLayout parent) {
+		mMenu = menu;
+
+		parent.addView(menu, new FrameLayout.LayoutParams(
+				FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+		getActivity().setContentView(parent);
+		mController.start().resume().visible();
+
+		mWidth = menu.getWidth();
+		mHeight = menu.getHeight();
+		mTouchSlop = ViewConfiguration.get(getActivity()).getScaledTouchSlop();
+		assertTrue("SlideMenu was never laid out", mWidth > 0);
+
+		// first frame ever does the layout-dependent init (landing zones, etc.)
+		menu.onDraw(new RecordingCanvas());
+	}
+
+	//-------------------
+	//  geometry
+	//-------------------
+
+	int getWidth() {
+		return mWidth;
+	}
+
+	int getHeight() {
+		return mHeight;
+	}
+
+	int getTouchSlop() {
+		return mTouchSlop;
+	}
+
+	float centerX() {
+		return mWidth / 2f;
+	}
+
+	float centerY() {
+		return mHeight / 2f;
+	}
+
+	/** landing zones are to the sides of the button, along its bottom */
+	float leftLzX() {
+		return -mWidth / 2f;
+	}
+
+	float rightLzX() {
+		return mWidth * 1.5f;
+	}
+
+	float lzY() {
+		return mHeight - 1;
+	}
+
+	//-------------------
+	//  touches
+	//-------------------
+
+	/** Sends one touch event to the SlideMenu, returning what onTouchEvent() did */
+	boolean touch(int action, float x, float y) {
+		long now = SystemClock.uptimeMillis();
+		MotionEvent event = MotionEvent.obtain(now, now, action, x, y, 0);
+		boolean handled = mMenu.onTouchEvent(event);
+		event.recycle();
+		return handled;
+	}
+
+	/** Puts a finger down in the middle of the button */
+	void downAtCenter() {
+		touch(MotionEvent.ACTION_DOWN, centerX(), centerY());
+	}
+
+	/** Moves the finger to the given offset from the middle of the button */
+	boolean moveFromCenter(float dx, float dy) {
+		return touch(MotionEvent.ACTION_MOVE, centerX() + dx, centerY() + dy);
+	}
+
+	/** Starts a gesture in the middle and slides straight to the given landing zone */
+	void slideTo(float lzX) {
+		downAtCenter();
+		touch(MotionEvent.ACTION_MOVE, lzX, lzY());
+	}
+
+}
@@ -0,0 +1,374 @@
+package com.sleepfuriously.slidemenu;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityNodeProvider;
+import android.widget.FrameLayout;
+
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Behavior tests for SlideMenu, run on the JVM with Robolectric.
+ * See {@link SlideMenuFixture} for how the widget is set up.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SlideMenuTest {
+
+	//-------------------
+	//  data
+	//-------------------
+
+	private SlideMenuFixture mFixture;
+
+	private CountingSlideMenu mMenu;
+
+	private RecordingParent mParent;
+
+	private CountingListener mListener;
+
+	//-------------------
+	//  setup
+	//-------------------
+
+	@Before
+	public void setUp() {
+		mFixture = new SlideMenuFixture();
+		Activity activity = mFixture.getActivity();
+
+		mParent = new RecordingParent(activity);
+		mMenu = new CountingSlideMenu(activity);
+		mMenu.setLeftText("take");
+		mMenu.setRightText("give");
+		mListener = new CountingListener();
+		mMenu.setOnSlideMenuListener(mListener);
+
+		mFixture.attach(mMenu, mParent);
+	}
+
+	//-------------------
+	//  touch tests
+	//-------------------
+
+	@Test
+	public void moveWithinSlop_decidesNothing() {
+		int slop = mFixture.getTouchSlop();
+		mFixture.downAtCenter();
+		assertTrue(mFixture.moveFromCenter(-slop, slop));
+		assertFalse(mParent.disallowed);
+	}
+
+	@Test
+	public void verticalMove_neverDisallowsParent() {
+		mFixture.downAtCenter();
+		assertTrue(mFixture.moveFromCenter(0, mFixture.getTouchSlop() + 1));
+
+		// Whatever happens for the rest of the gesture, it isn't ours
+		mFixture.touch(MotionEvent.ACTION_MOVE, mFixture.leftLzX(), mFixture.lzY());
+		mFixture.touch(MotionEvent.ACTION_UP, mFixture.leftLzX(), mFixture.lzY());
+
+		assertFalse(mParent.disallowed);
+		assertEquals(0, mListener.left + mListener.right);
+	}
+
+	@Test
+	public void horizontalMoveTowardOption_claimsGesture() {
+		mFixture.downAtCenter();
+		mFixture.moveFromCenter(-mFixture.getTouchSlop() - 1, 0);
+		assertTrue(mParent.disallowed);
+
+		mFixture.touch(MotionEvent.ACTION_MOVE, mFixture.leftLzX(), mFixture.lzY());
+		mFixture.touch(MotionEvent.ACTION_UP, mFixture.leftLzX(), mFixture.lzY());
+		assertEquals(1, mListener.left);
+		assertEquals(0, mListener.right);
+	}
+
+	@Test
+	public void horizontalMoveTowardMissingOption_isNotClaimed() {
+		mMenu.setRightText(null);
+
+		mFixture.downAtCenter();
+		mFixture.moveFromCenter(mFixture.getTouchSlop() + 1, 0);
+		assertFalse(mParent.disallowed);
+	}
+
+	@Test
+	public void claimedSlideIntoZoneWithoutOption_activatesNothing() {
+		mMenu.setRightText(null);
+
+		// claimed toward the left option...
+		mFixture.downAtCenter();
+		mFixture.moveFromCenter(-mFixture.getTouchSlop() - 1, 0);
+		assertTrue(mParent.disallowed);
+
+		// ...then over to the right landing zone, which has nothing to show
+		mFixture.touch(MotionEvent.ACTION_MOVE, mFixture.rightLzX(), mFixture.lzY());
+		RecordingCanvas canvas = new RecordingCanvas();
+		mMenu.onDraw(canvas);
+		assertFalse(canvas.texts.contains("take"));
+
+		mFixture.touch(MotionEvent.ACTION_UP, mFixture.rightLzX(), mFixture.lzY());
+		assertEquals(0, mListener.left + mListener.right);
+	}
+
+	@Test
+	public void cancel_resetsWithoutFiring() {
+		mFixture.slideTo(mFixture.rightLzX());
+		assertTrue(mParent.disallowed);
+
+		mFixture.touch(MotionEvent.ACTION_CANCEL, mFixture.rightLzX(), mFixture.lzY());
+		assertEquals(0, mListener.left + mListener.right);
+
+		// nothing left over from the cancelled gesture
+		mFixture.touch(MotionEvent.ACTION_UP, mFixture.rightLzX(), mFixture.lzY());
+		assertEquals(0, mListener.left + mListener.right);
+
+		RecordingCanvas canvas = new RecordingCanvas();
+		mMenu.onDraw(canvas);
+		assertFalse(canvas.texts.contains("give"));
+	}
+
+	//-------------------
+	//  property tests
+	//-------------------
+
+	@Test
+	public void setMenuTextSize_reachesOptionPaints() {
+		mMenu.setMenuTextSize(40f);
+
+		mFixture.slideTo(mFixture.leftLzX());
+		assertEquals(40f, drawnPaintFor("take").getTextSize(), 0f);
+
+		mFixture.touch(MotionEvent.ACTION_CANCEL, 0, 0);
+		mFixture.slideTo(mFixture.rightLzX());
+		assertEquals(40f, drawnPaintFor("give").getTextSize(), 0f);
+	}
+
+	@Test
+	public void editorCommit_appliesAllAndRedrawsOnce() {
+		mFixture.slideTo(mFixture.leftLzX());
+		mMenu.invalidates = 0;
+
+		SlideMenu.editAll(mMenu)
+				.setLeftText("grab")
+				.setLeftTextColor(Color.RED)
+				.setRightTextColor(Color.BLUE)
+				.setMenuTextSize(50f)
+				.commit();
+		assertEquals(1, mMenu.invalidates);
+
+		Paint left = drawnPaintFor("grab");
+		assertEquals(50f, left.getTextSize(), 0f);
+		assertEquals(Color.RED, left.getColor());
+
+		mFixture.touch(MotionEvent.ACTION_CANCEL, 0, 0);
+		mFixture.slideTo(mFixture.rightLzX());
+		Paint right = drawnPaintFor("give");
+		assertEquals(50f, right.getTextSize(), 0f);
+		assertEquals(Color.BLUE, right.getColor());
+	}
+
+	@Test
+	public void editorCommit_withNoOptionShowing_doesNotRedraw() {
+		mMenu.invalidates = 0;
+		mMenu.edit().setRightText("hand").setMenuTextSize(30f).commit();
+		assertEquals(0, mMenu.invalidates);
+		assertEquals("hand", mMenu.getRightText());
+	}
+
+	//-------------------
+	//  accessibility tests
+	//-------------------
+
+	@Test
+	public void visibleVirtualViews_dropNullOptions() {
+		assertEquals(Arrays.asList(SlideMenu.VIRTUAL_ID_LEFT, SlideMenu.VIRTUAL_ID_RIGHT),
+				visibleVirtualViews());
+
+		mMenu.setRightText(null);
+		assertEquals(Collections.singletonList(SlideMenu.VIRTUAL_ID_LEFT), visibleVirtualViews());
+
+		mMenu.edit().setLeftText(null).setRightText("give").commit();
+		assertEquals(Collections.singletonList(SlideMenu.VIRTUAL_ID_RIGHT), visibleVirtualViews());
+	}
+
+	@Test
+	public void virtualViewNodes_haveOptionTextAndHalfOfButton() {
+		int width = mFixture.getWidth(), height = mFixture.getHeight();
+
+		AccessibilityNodeInfoCompat left = populatedNode(SlideMenu.VIRTUAL_ID_LEFT);
+		assertEquals("take", left.getContentDescription().toString());
+		assertEquals(new Rect(0, 0, width / 2, height), boundsInParent(left));
+
+		AccessibilityNodeInfoCompat right = populatedNode(SlideMenu.VIRTUAL_ID_RIGHT);
+		assertEquals("give", right.getContentDescription().toString());
+		assertEquals(new Rect(width / 2, 0, width, height), boundsInParent(right));
+
+		// and the nodes accessibility services get are built from the same data
+		AccessibilityNodeInfo served = provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_RIGHT);
+		assertEquals("give", served.getContentDescription().toString());
+	}
+
+	@Test
+	public void clickOnVirtualView_firesOption() {
+		assertTrue(provider().performAction(SlideMenu.VIRTUAL_ID_LEFT,
+				AccessibilityNodeInfo.ACTION_CLICK, null));
+		assertEquals(1, mListener.left);
+		assertEquals(0, mListener.right);
+
+		assertTrue(provider().performAction(SlideMenu.VIRTUAL_ID_RIGHT,
+				AccessibilityNodeInfo.ACTION_CLICK, null));
+		assertEquals(1, mListener.left);
+		assertEquals(1, mListener.right);
+	}
+
+	@Test
+	public void accessCache_rebuiltOnlyAfterTextOrSizeChange() {
+		int width = mFixture.getWidth(), height = mFixture.getHeight();
+
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_LEFT);
+		int builds = mMenu.mAccessHelper.mCacheBuilds;
+
+		// queries and non-text properties use the cache as is
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_LEFT);
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_RIGHT);
+		visibleVirtualViews();
+		mMenu.edit().setLeftTextColor(Color.RED).setMenuTextSize(30f).commit();
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_LEFT);
+		assertEquals(builds, mMenu.mAccessHelper.mCacheBuilds);
+
+		mMenu.setLeftText("grab");
+		AccessibilityNodeInfo left = provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_LEFT);
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_RIGHT);
+		assertEquals(builds + 1, mMenu.mAccessHelper.mCacheBuilds);
+		assertEquals("grab", left.getContentDescription().toString());
+
+		mMenu.edit().setRightText("hand").commit();
+		provider().createAccessibilityNodeInfo(SlideMenu.VIRTUAL_ID_RIGHT);
+		assertEquals(builds + 2, mMenu.mAccessHelper.mCacheBuilds);
+
+		// a new size moves both halves
+		mMenu.layout(0, 0, width * 2, height);
+		Rect bounds = boundsInParent(populatedNode(SlideMenu.VIRTUAL_ID_RIGHT));
+		assertEquals(builds + 3, mMenu.mAccessHelper.mCacheBuilds);
+		assertEquals(new Rect(width, 0, width * 2, height), bounds);
+
+		// same size again is not a change
+		mMenu.layout(0, 0, width * 2, height);
+		populatedNode(SlideMenu.VIRTUAL_ID_RIGHT);
+		assertEquals(builds + 3, mMenu.mAccessHelper.mCacheBuilds);
+	}
+
+	//-------------------
+	//  helpers
+	//-------------------
+
+	/** The node provider accessibility services see (through the View's delegate) */
+	private AccessibilityNodeProvider provider() {
+		AccessibilityNodeProvider provider = mMenu.getAccessibilityNodeProvider();
+		assertNotNull("no accessibility node provider", provider);
+		return provider;
+	}
+
+	/**
+	 * Populates a node straight from the helper.  The provider's nodes can't
+	 * be used for bounds: they're copies, and Robolectric's copy drops
+	 * boundsInParent.
+	 */
+	private AccessibilityNodeInfoCompat populatedNode(int virtualViewId) {
+		AccessibilityNodeInfoCompat node = AccessibilityNodeInfoCompat.obtain();
+		mMenu.mAccessHelper.onPopulateNodeForVirtualView(virtualViewId, node);
+		return node;
+	}
+
+	private static Rect boundsInParent(AccessibilityNodeInfoCompat node) {
+		Rect bounds = new Rect();
+		node.getBoundsInParent(bounds);
+		return bounds;
+	}
+
+	private List<Integer> visibleVirtualViews() {
+		List<Integer> ids = new ArrayList<>();
+		mMenu.mAccessHelper.getVisibleVirtualViews(ids);
+		return ids;
+	}
+
+	/** Draws a frame and returns the Paint used for the given text */
+	private Paint drawnPaintFor(String text) {
+		RecordingCanvas canvas = new RecordingCanvas();
+		mMenu.onDraw(canvas);
+		int i = canvas.texts.indexOf(text);
+		assertTrue("\"" + text + "\" not drawn: " + canvas, i >= 0);
+		return canvas.textPaints.get(i);
+	}
+
+	//-------------------
+	//  classes
+	//-------------------
+
+	/** Counts calls to invalidate() */
+	private static class CountingSlideMenu extends SlideMenu {
+
+		int invalidates = 0;
+
+		CountingSlideMenu(Context context) {
+			super(context);
+		}
+
+		@Override
+		public void invalidate() {
+			invalidates++;
+			super.invalidate();
+		}
+	}
+
+	/** Remembers if a child ever asked it not to intercept */
+	private static class RecordingParent extends FrameLayout {
+
+		boolean disallowed = false;
+
+		RecordingParent(Context context) {
+			super(context);
+		}
+
+		@Override
+		public void requestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+			disallowed |= disallowIntercept;
+			super.requestDisallowInterceptTouchEvent(disallowIntercept);
+		}
+	}
+
+	private static class CountingListener implements SlideMenu.OnSlideMenuListener {
+
+		int left, right;
+
+		@Override
+		public void onSlideLeft() {
+			left++;
+		}
+
+		@Override
+		public void onSlideRight() {
+			right++;
+		}
+	}
+
+}